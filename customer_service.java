@@ -4,6 +4,9 @@ public class CustomerMasterService {
     
     private final CustomerMasterWebClientFactory webClientFactory;
     private final WebClientConfigurationProperties config;
+    private final LocalProductCatalog productCatalog;
+    private final ExchangeTelemetry exchangeTelemetry;
+    private final SampledRequestLogger requestLogger;
     
     @Value("${customer-master-adapter.country:US}")
     private String defaultCountry;
@@ -12,14 +15,25 @@ public class CustomerMasterService {
     private String environment;
     
     public CustomerMasterService(CustomerMasterWebClientFactory webClientFactory,
-                               WebClientConfigurationProperties config) {
+                               WebClientConfigurationProperties config,
+                               LocalProductCatalog productCatalog,
+                               ExchangeTelemetry exchangeTelemetry,
+                               SampledRequestLogger requestLogger) {
         this.webClientFactory = webClientFactory;
         this.config = config;
+        this.productCatalog = productCatalog;
+        this.exchangeTelemetry = exchangeTelemetry;
+        this.requestLogger = requestLogger;
     }
     
     // Product Service Methods
     public Mono<ProductResponse> getProduct(String productId, String country) {
-        return makeRequest("product", country, "/products/" + productId, ProductResponse.class);
+        // Serve from the local catalog when enabled, falling back to the subsystem on a miss
+        ProductResponse cached = productCatalog.getProduct(productId, country != null ? country : defaultCountry);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return makeRequest("product", country, "/products/{productId}", ProductResponse.class, productId);
     }
     
     public Mono<ProductResponse> getProduct(String productId) {
@@ -27,53 +41,68 @@ public class CustomerMasterService {
     }
     
     public Flux<ProductResponse> searchProducts(ProductSearchRequest request, String country) {
+        List<ProductResponse> local = productCatalog.searchProducts(request, country != null ? country : defaultCountry);
+        if (local != null) {
+            return Flux.fromIterable(local);
+        }
         return makeRequestFlux("product", country, "/products/search", request, ProductResponse.class);
     }
     
     // Profile Service Methods
     public Mono<ProfileResponse> getProfile(String customerId, String country) {
-        return makeRequest("profile", country, "/profiles/" + customerId, ProfileResponse.class);
+        return makeRequest("profile", country, "/profiles/{customerId}", ProfileResponse.class, customerId);
     }
     
     public Mono<ProfileResponse> updateProfile(String customerId, ProfileUpdateRequest request, String country) {
-        return makeRequest("profile", country, "/profiles/" + customerId, request, ProfileResponse.class, HttpMethod.PUT);
+        return makeRequest("profile", country, "/profiles/{customerId}", request, ProfileResponse.class, HttpMethod.PUT, customerId);
     }
     
     // Preferences Service Methods
     public Mono<PreferencesResponse> getPreferences(String customerId, String country) {
-        return makeRequest("preferences", country, "/preferences/" + customerId, PreferencesResponse.class);
+        return makeRequest("preferences", country, "/preferences/{customerId}", PreferencesResponse.class, customerId);
     }
     
     public Mono<PreferencesResponse> updatePreferences(String customerId, PreferencesUpdateRequest request, String country) {
-        return makeRequest("preferences", country, "/preferences/" + customerId, request, PreferencesResponse.class, HttpMethod.PUT);
+        return makeRequest("preferences", country, "/preferences/{customerId}", request, PreferencesResponse.class, HttpMethod.PUT, customerId);
     }
     
     // E-Services Methods
     public Mono<EServiceResponse> getEServices(String customerId, String country) {
-        return makeRequest("eservices", country, "/eservices/" + customerId, EServiceResponse.class);
+        return makeRequest("eservices", country, "/eservices/{customerId}", EServiceResponse.class, customerId);
     }
     
     public Mono<EServiceResponse> subscribeToService(String customerId, EServiceSubscriptionRequest request, String country) {
-        return makeRequest("eservices", country, "/eservices/" + customerId + "/subscribe", request, EServiceResponse.class, HttpMethod.POST);
+        return makeRequest("eservices", country, "/eservices/{customerId}/subscribe", request, EServiceResponse.class, HttpMethod.POST, customerId);
     }
     
-    // Generic request methods
-    private <T> Mono<T> makeRequest(String subsystem, String country, String path, Class<T> responseType) {
-        return makeRequest(subsystem, country, path, null, responseType, HttpMethod.GET);
+    // Generic request methods; paths are URI templates expanded with uriVariables so that
+    // logs and telemetry only ever see the template, never customer or product ids
+    private <T> Mono<T> makeRequest(String subsystem, String country, String path, Class<T> responseType,
+                                    Object... uriVariables) {
+        return makeRequest(subsystem, country, path, null, responseType, HttpMethod.GET, uriVariables);
     }
     
     private <T, R> Mono<T> makeRequest(String subsystem, String country, String path, R requestBody, 
-                                      Class<T> responseType, HttpMethod method) {
-        return Mono.fromSupplier(() -> {
-            ResolvedConfig resolvedConfig = config.resolveConfig(
-                country != null ? country : defaultCountry, subsystem, environment);
-            WebClient webClient = webClientFactory.getWebClient(subsystem, country);
+                                      Class<T> responseType, HttpMethod method, Object... uriVariables) {
+        return Mono.deferContextual(ctx -> {
+            String effectiveCountry = country != null ? country : defaultCountry;
+            ExchangeTimings timings = exchangeTelemetry.start(subsystem, effectiveCountry, method, path, ctx);
+            ResolvedConfig resolvedConfig;
+            WebClient webClient;
+            try {
+                resolvedConfig = config.resolveConfig(effectiveCountry, subsystem, environment);
+                webClient = webClientFactory.getWebClient(subsystem, country);
+            } catch (RuntimeException e) {
+                exchangeTelemetry.failConfigResolution(timings, RequestPriority.from(ctx));
+                return Mono.error(e);
+            }
+            timings.markConfigResolved();
             
             String effectiveUrl = buildEffectiveUrl(resolvedConfig, path);
             
             WebClient.RequestBodySpec requestSpec = webClient
                 .method(method)
-                .uri(effectiveUrl);
+                .uri(effectiveUrl, uriVariables);
             
             if (requestBody != null) {
                 requestSpec = requestSpec.bodyValue(requestBody);
@@ -83,16 +112,27 @@ public class CustomerMasterService {
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, this::handleErrorResponse)
                 .bodyToMono(responseType)
-                .doOnNext(response -> log.debug("Received response from {}: {}", effectiveUrl, response))
-                .doOnError(error -> log.error("Error calling {}: {}", effectiveUrl, error.getMessage()));
-        }).flatMap(mono -> mono);
+                .doOnNext(response -> requestLogger.debug(log, "Received response from {}: {}", effectiveUrl, response))
+                .doOnError(error -> log.error("Error calling {}: {}", effectiveUrl, error.getMessage()))
+                .doFinally(signal -> exchangeTelemetry.finish(timings, signal, RequestPriority.from(ctx)))
+                .contextWrite(timings.context());
+        });
     }
     
     private <T, R> Flux<T> makeRequestFlux(String subsystem, String country, String path, R requestBody, Class<T> responseType) {
-        return Flux.defer(() -> {
-            ResolvedConfig resolvedConfig = config.resolveConfig(
-                country != null ? country : defaultCountry, subsystem, environment);
-            WebClient webClient = webClientFactory.getWebClient(subsystem, country);
+        return Flux.deferContextual(ctx -> {
+            String effectiveCountry = country != null ? country : defaultCountry;
+            ExchangeTimings timings = exchangeTelemetry.start(subsystem, effectiveCountry, HttpMethod.POST, path, ctx);
+            ResolvedConfig resolvedConfig;
+            WebClient webClient;
+            try {
+                resolvedConfig = config.resolveConfig(effectiveCountry, subsystem, environment);
+                webClient = webClientFactory.getWebClient(subsystem, country);
+            } catch (RuntimeException e) {
+                exchangeTelemetry.failConfigResolution(timings, RequestPriority.from(ctx));
+                return Flux.error(e);
+            }
+            timings.markConfigResolved();
             
             String effectiveUrl = buildEffectiveUrl(resolvedConfig, path);
             
@@ -107,7 +147,9 @@ public class CustomerMasterService {
             return requestSpec
                 .retrieve()
                 .onStatus(HttpStatusCode::isError, this::handleErrorResponse)
-                .bodyToFlux(responseType);
+                .bodyToFlux(responseType)
+                .doFinally(signal -> exchangeTelemetry.finish(timings, signal, RequestPriority.from(ctx)))
+                .contextWrite(timings.context());
         });
     }
     
@@ -0,0 +1,380 @@
+/**
+ * JDK Flight Recorder event describing where the time of one Customer Master exchange went.
+ * The event duration covers the whole call; the phase fields break it down.
+ */
+@Name("customermaster.Exchange")
+@Label("Customer Master Exchange")
+@Category({"Customer Master", "WebClient"})
+@Description("Phase breakdown of a call to a Customer Master subsystem")
+@StackTrace(false)
+public class CustomerMasterExchangeEvent extends Event {
+
+    @Label("Subsystem")
+    String subsystem;
+
+    @Label("Country")
+    String country;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path Template")
+    String path;
+
+    @Label("Priority")
+    String priority;
+
+    @Label("Status")
+    int status;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Config Resolution")
+    @Timespan(Timespan.NANOSECONDS)
+    long configResolution;
+
+    @Label("Permit Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long permitWait;
+
+    @Label("OAuth Token Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long tokenWait;
+
+    @Label("Pool Acquire")
+    @Timespan(Timespan.NANOSECONDS)
+    long poolAcquire;
+
+    @Label("Connect/TLS")
+    @Timespan(Timespan.NANOSECONDS)
+    long connect;
+
+    @Label("Time To First Byte")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToFirstByte;
+
+    @Label("Body Decode")
+    @Timespan(Timespan.NANOSECONDS)
+    long bodyDecode;
+}
+
+/**
+ * Timestamps collected for one exchange as it passes through the service, the lanes,
+ * the WebClient filters and the Netty connection. Carried in the Reactor context;
+ * code paths without it (e.g. direct WebClient use) get {@link #NONE}, which ignores marks.
+ */
+public final class ExchangeTimings {
+
+    static final ExchangeTimings NONE = new ExchangeTimings(null, null, null, null, null, false);
+
+    private static final String CONTEXT_KEY = ExchangeTimings.class.getName();
+
+    final String subsystem;
+    final String country;
+    final String method;
+    final String path;
+    final TraceContext traceParent;
+    final boolean logged;
+    final long startNanos;
+    final long startEpochMicros;
+    final CustomerMasterExchangeEvent event;
+
+    volatile long configResolvedNanos;
+    volatile long permitRequestedNanos;
+    volatile long permitAcquiredNanos;
+    volatile long tokenWaitNanos;
+    volatile long dispatchedNanos;
+    volatile long connectNanos;
+    volatile long requestSentNanos;
+    volatile long responseNanos;
+    volatile int status;
+
+    ExchangeTimings(String subsystem, String country, String method, String path,
+                    TraceContext traceParent, boolean logged) {
+        this.subsystem = subsystem;
+        this.country = country;
+        this.method = method;
+        this.path = path;
+        this.traceParent = traceParent;
+        this.logged = logged;
+        this.startNanos = System.nanoTime();
+        this.startEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.event = subsystem != null ? new CustomerMasterExchangeEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+    }
+
+    public static ExchangeTimings from(ContextView ctx) {
+        return ctx.getOrDefault(CONTEXT_KEY, NONE);
+    }
+
+    public Function<Context, Context> context() {
+        return ctx -> ctx.put(CONTEXT_KEY, this);
+    }
+
+    public void markConfigResolved() {
+        if (this != NONE) configResolvedNanos = System.nanoTime();
+    }
+
+    public void markPermitRequested() {
+        if (this != NONE) permitRequestedNanos = System.nanoTime();
+    }
+
+    public void markPermitAcquired() {
+        if (this != NONE) permitAcquiredNanos = System.nanoTime();
+    }
+
+    public void recordTokenWait(long nanos) {
+        if (this != NONE) tokenWaitNanos = nanos;
+    }
+
+    public void markDispatched() {
+        if (this != NONE) dispatchedNanos = System.nanoTime();
+    }
+
+    public void recordConnect(long nanos) {
+        if (this != NONE) connectNanos = nanos;
+    }
+
+    public void markRequestSent() {
+        if (this != NONE) requestSentNanos = System.nanoTime();
+    }
+
+    public void markResponse(int statusCode) {
+        if (this != NONE) {
+            responseNanos = System.nanoTime();
+            status = statusCode;
+        }
+    }
+
+    // Runs to the end of the exchange when resolution itself failed
+    long configResolution(long endNanos) {
+        return between(startNanos, configResolvedNanos != 0 ? configResolvedNanos : endNanos);
+    }
+
+    // Runs to the end of the exchange when no permit was granted (shed or lane timeout)
+    long permitWait(long endNanos) {
+        return between(permitRequestedNanos, permitAcquiredNanos != 0 ? permitAcquiredNanos : endNanos);
+    }
+
+    // Time between leaving the filter chain and writing the request, minus any new-connection setup
+    long poolAcquire() {
+        return Math.max(between(dispatchedNanos, requestSentNanos) - connectNanos, 0);
+    }
+
+    long timeToFirstByte() {
+        return between(requestSentNanos, responseNanos);
+    }
+
+    long bodyDecode(long endNanos) {
+        return between(responseNanos, endNanos);
+    }
+
+    private static long between(long fromNanos, long toNanos) {
+        return fromNanos != 0 && toNanos != 0 ? Math.max(toNanos - fromNanos, 0) : 0;
+    }
+}
+
+/**
+ * Rate limiter for request, response and phase debug logging. One instance is shared by
+ * every caller, so request-logs-per-second is a single process-wide cap; lines over it are dropped.
+ */
+@Component
+public class SampledRequestLogger {
+
+    private final long intervalNanos;
+    private final AtomicLong nextAllowedNanos = new AtomicLong(Long.MIN_VALUE);
+
+    public SampledRequestLogger(WebClientConfigurationProperties config) {
+        int linesPerSecond = config.getInstrumentation().getRequestLogsPerSecond();
+        this.intervalNanos = linesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / linesPerSecond : -1;
+    }
+
+    public void debug(Logger logger, String format, Object... arguments) {
+        if (logger.isDebugEnabled() && tryAcquire()) {
+            logger.debug(format, arguments);
+        }
+    }
+
+    private boolean tryAcquire() {
+        if (intervalNanos < 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long next = nextAllowedNanos.get();
+        return (next == Long.MIN_VALUE || now - next >= 0) && nextAllowedNanos.compareAndSet(next, now + intervalNanos);
+    }
+}
+
+/**
+ * Collects per-exchange phase timings and publishes them as JFR events, as child spans
+ * of the caller's trace when the tracer sampled it, and as rate-limited debug log lines
+ * for traced exchanges plus a sampled fraction of the rest.
+ */
+@Component
+@Slf4j
+public class ExchangeTelemetry {
+
+    private static final AttributeKey<Long> CHANNEL_INIT_NANOS = AttributeKey.valueOf("customerMaster.channelInit");
+    private static final AttributeKey<Long> CONNECTED_NANOS = AttributeKey.valueOf("customerMaster.connected");
+
+    private final ObjectProvider<Tracer> tracerProvider;
+    private final double phaseLogSampleRate;
+    private final SampledRequestLogger requestLogger;
+
+    public ExchangeTelemetry(WebClientConfigurationProperties config, ObjectProvider<Tracer> tracerProvider,
+                             SampledRequestLogger requestLogger) {
+        this.tracerProvider = tracerProvider;
+        this.phaseLogSampleRate = config.getInstrumentation().getPhaseLogSampleRate();
+        this.requestLogger = requestLogger;
+    }
+
+    /**
+     * Begin timing an exchange. The path must be the URI template, never the expanded path,
+     * so customer ids stay out of recordings and span tags.
+     */
+    public ExchangeTimings start(String subsystem, String country, HttpMethod method, String pathTemplate,
+                                 ContextView ctx) {
+        // The tracer already made the sampling decision for the inbound trace; only follow it
+        TraceContext parent = currentTraceContext(ctx);
+        TraceContext traceParent = parent != null && Boolean.TRUE.equals(parent.sampled()) ? parent : null;
+        boolean logged = traceParent != null
+            || (phaseLogSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < phaseLogSampleRate);
+        return new ExchangeTimings(subsystem, country, method.name(), pathTemplate, traceParent, logged);
+    }
+
+    /**
+     * Close out the exchange: commit the JFR event if recording, and emit span/log when sampled
+     */
+    public void finish(ExchangeTimings timings, SignalType signal, RequestPriority priority) {
+        finish(timings, signal == SignalType.ON_ERROR ? "error"
+            : signal == SignalType.CANCEL ? "cancelled" : "success", priority);
+    }
+
+    /**
+     * Close out an exchange that failed while resolving its configuration, before any request was made
+     */
+    public void failConfigResolution(ExchangeTimings timings, RequestPriority priority) {
+        finish(timings, "config_error", priority);
+    }
+
+    private void finish(ExchangeTimings timings, String outcome, RequestPriority priority) {
+        long endNanos = System.nanoTime();
+
+        CustomerMasterExchangeEvent event = timings.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.subsystem = timings.subsystem;
+            event.country = timings.country;
+            event.method = timings.method;
+            event.path = timings.path;
+            event.priority = priority.tagValue();
+            event.status = timings.status;
+            event.outcome = outcome;
+            event.configResolution = timings.configResolution(endNanos);
+            event.permitWait = timings.permitWait(endNanos);
+            event.tokenWait = timings.tokenWaitNanos;
+            event.poolAcquire = timings.poolAcquire();
+            event.connect = timings.connectNanos;
+            event.timeToFirstByte = timings.timeToFirstByte();
+            event.bodyDecode = timings.bodyDecode(endNanos);
+            event.commit();
+        }
+
+        if (timings.traceParent != null) {
+            Tracer tracer = tracerProvider.getIfAvailable();
+            if (tracer != null) {
+                recordSpan(tracer, timings, priority, outcome, endNanos);
+            }
+        }
+        if (!timings.logged) {
+            return;
+        }
+        requestLogger.debug(log, "{} {} [{}] {} {} in {}us: config={}us permit={}us token={}us pool={}us connect={}us ttfb={}us decode={}us",
+            timings.method, timings.path, timings.subsystem, timings.status, outcome,
+            micros(endNanos - timings.startNanos), micros(timings.configResolution(endNanos)), micros(timings.permitWait(endNanos)),
+            micros(timings.tokenWaitNanos), micros(timings.poolAcquire()), micros(timings.connectNanos),
+            micros(timings.timeToFirstByte()), micros(timings.bodyDecode(endNanos)));
+    }
+
+    /**
+     * Filter to register last on a WebClient, marking the moment the request leaves for the connector
+     */
+    public ExchangeFilterFunction dispatchFilter() {
+        return (request, next) -> Mono.deferContextual(ctx -> {
+            ExchangeTimings.from(ctx).markDispatched();
+            return next.exchange(request);
+        });
+    }
+
+    /**
+     * Hook connection setup, request write and response headers on the Netty client
+     */
+    public HttpClient instrument(HttpClient httpClient) {
+        return httpClient
+            .doOnChannelInit((observer, channel, remoteAddress) ->
+                channel.attr(CHANNEL_INIT_NANOS).set(System.nanoTime()))
+            .doOnConnected(conn -> conn.channel().attr(CONNECTED_NANOS).set(System.nanoTime()))
+            .doOnRequest((request, conn) -> {
+                ExchangeTimings timings = ExchangeTimings.from(request.currentContextView());
+                // Only the first request on a fresh connection pays for connect/TLS
+                Long initNanos = conn.channel().attr(CHANNEL_INIT_NANOS).getAndSet(null);
+                Long connectedNanos = conn.channel().attr(CONNECTED_NANOS).getAndSet(null);
+                if (initNanos != null && connectedNanos != null) {
+                    timings.recordConnect(connectedNanos - initNanos);
+                }
+                timings.markRequestSent();
+            })
+            .doOnResponse((response, conn) ->
+                ExchangeTimings.from(response.currentContextView()).markResponse(response.status().code()));
+    }
+
+    private void recordSpan(Tracer tracer, ExchangeTimings timings, RequestPriority priority, String outcome, long endNanos) {
+        Span span = tracer.spanBuilder()
+            .setParent(timings.traceParent)
+            .name("customer-master " + timings.subsystem)
+            .startTimestamp(timings.startEpochMicros, TimeUnit.MICROSECONDS)
+            .tag("customer_master.country", String.valueOf(timings.country))
+            .tag("http.method", timings.method)
+            .tag("http.route", timings.path)
+            .tag("http.status_code", String.valueOf(timings.status))
+            .tag("customer_master.priority", priority.tagValue())
+            .tag("customer_master.outcome", outcome)
+            .tag("phase.config_us", String.valueOf(micros(timings.configResolution(endNanos))))
+            .tag("phase.permit_us", String.valueOf(micros(timings.permitWait(endNanos))))
+            .tag("phase.token_us", String.valueOf(micros(timings.tokenWaitNanos)))
+            .tag("phase.pool_us", String.valueOf(micros(timings.poolAcquire())))
+            .tag("phase.connect_us", String.valueOf(micros(timings.connectNanos)))
+            .tag("phase.ttfb_us", String.valueOf(micros(timings.timeToFirstByte())))
+            .tag("phase.decode_us", String.valueOf(micros(timings.bodyDecode(endNanos))))
+            .start();
+        span.end(timings.startEpochMicros + micros(endNanos - timings.startNanos), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Trace context of the inbound request: the observation propagated in the Reactor
+     * context if there is one, else whatever span the tracer considers current
+     */
+    private TraceContext currentTraceContext(ContextView ctx) {
+        Tracer tracer = tracerProvider.getIfAvailable();
+        if (tracer == null) {
+            return null;
+        }
+        Observation observation = ctx.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        if (observation != null) {
+            TracingObservationHandler.TracingContext tracingContext =
+                observation.getContextView().get(TracingObservationHandler.TracingContext.class);
+            if (tracingContext != null && tracingContext.getSpan() != null) {
+                return tracingContext.getSpan().context();
+            }
+        }
+        Span current = tracer.currentSpan();
+        return current != null ? current.context() : null;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
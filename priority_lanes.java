@@ -0,0 +1,286 @@
+/**
+ * Priority class of an outbound call, carried in the Reactor context.
+ * Live customer traffic is INTERACTIVE; bulk jobs should mark themselves BATCH.
+ */
+public enum RequestPriority {
+    INTERACTIVE,
+    BATCH;
+
+    public static final String HEADER = "X-Request-Priority";
+
+    private static final String CONTEXT_KEY = RequestPriority.class.getName();
+
+    /**
+     * Parse a header or API value; anything other than "batch" is treated as interactive
+     */
+    public static RequestPriority fromValue(String value) {
+        return value != null && BATCH.name().equalsIgnoreCase(value.trim()) ? BATCH : INTERACTIVE;
+    }
+
+    /**
+     * Context modifier for callers, e.g. {@code service.getProfile(id, country).contextWrite(RequestPriority.BATCH.context())}
+     */
+    public Function<Context, Context> context() {
+        return ctx -> ctx.put(CONTEXT_KEY, this);
+    }
+
+    public static RequestPriority from(ContextView ctx) {
+        return ctx.getOrDefault(CONTEXT_KEY, INTERACTIVE);
+    }
+
+    public String tagValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
+
+/**
+ * Gates calls into each WebClient connection pool with per-lane concurrency permits,
+ * installed as a filter on every client the factory builds.
+ * Each pool gets as many permits as it has connections, so the order permits are handed
+ * out is the order the pool is acquired in. Interactive waiters are always served first,
+ * batch work may never hold the share reserved for interactive traffic, and new batch
+ * work is shed while interactive callers are queued or the batch queue is full.
+ */
+@Component
+@Slf4j
+public class PriorityLaneLimiter {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LaneGate> gates = new ConcurrentHashMap<>();
+
+    public PriorityLaneLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Filter that holds a permit for the pool behind the resolved config from dispatch until
+     * the response body has been consumed or released, or the exchange fails or is cancelled
+     */
+    public ExchangeFilterFunction permitFilter(ResolvedConfig config) {
+        return (request, next) -> Mono.deferContextual(ctx -> {
+                ExchangeTimings.from(ctx).markPermitRequested();
+                return acquire(config, RequestPriority.from(ctx))
+                    .doOnNext(permit -> ExchangeTimings.from(ctx).markPermitAcquired());
+            })
+            .flatMap(permit -> next.exchange(request)
+                .map(response -> response.mutate()
+                    .body(body -> body.doFinally(signal -> permit.release()))
+                    .build())
+                .doOnError(error -> permit.release())
+                .doOnCancel(permit::release));
+    }
+
+    private Mono<LanePermit> acquire(ResolvedConfig config, RequestPriority priority) {
+        LaneGate gate = gates.computeIfAbsent(config.getCacheKey(),
+            key -> new LaneGate(key, config.getConnection()));
+        long startNanos = System.nanoTime();
+
+        return gate.acquire(priority)
+            .timeout(gate.acquireTimeout)
+            .doOnNext(permit -> gate.recordWait(priority, System.nanoTime() - startNanos))
+            .onErrorMap(TimeoutException.class, error -> {
+                gate.recordOutcome(priority, "timeout");
+                return new CustomerMasterException(String.format(
+                    "Timed out waiting for %s permit on pool: %s", priority.tagValue(), gate.poolKey), 503);
+            });
+    }
+
+    private final class LaneGate {
+
+        private final String poolKey;
+        private final int capacity;
+        private final int batchLimit;
+        private final int maxPendingBatch;
+        private final Duration acquireTimeout;
+        private final Deque<Waiter> interactiveWaiters = new ArrayDeque<>();
+        private final Deque<Waiter> batchWaiters = new ArrayDeque<>();
+        private final Map<RequestPriority, AtomicInteger> inFlight = new EnumMap<>(RequestPriority.class);
+        private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class);
+
+        private int inUse;
+
+        LaneGate(String poolKey, ConnectionConfig connectionConfig) {
+            this.poolKey = poolKey;
+            this.capacity = Math.max(connectionConfig.getMaxConnections(), 1);
+            int reserved = (int) Math.ceil(capacity * connectionConfig.getInteractiveReservedShare());
+            this.batchLimit = Math.max(capacity - reserved, 1);
+            this.maxPendingBatch = connectionConfig.getMaxPendingBatch();
+            this.acquireTimeout = connectionConfig.getLaneAcquireTimeout();
+
+            for (RequestPriority priority : RequestPriority.values()) {
+                Tags tags = Tags.of("pool", poolKey, "lane", priority.tagValue());
+                inFlight.put(priority, meterRegistry.gauge("customer_master.lane.in_flight", tags, new AtomicInteger()));
+                Deque<Waiter> queue = priority == RequestPriority.INTERACTIVE ? interactiveWaiters : batchWaiters;
+                Gauge.builder("customer_master.lane.pending", this, gate -> gate.pendingCount(queue))
+                    .tags(tags)
+                    .register(meterRegistry);
+                waitTimers.put(priority, Timer.builder("customer_master.lane.wait")
+                    .tags(tags)
+                    .register(meterRegistry));
+            }
+            log.debug("Created priority lanes for pool {} with {} permits ({} usable by batch)",
+                poolKey, capacity, batchLimit);
+        }
+
+        Mono<LanePermit> acquire(RequestPriority priority) {
+            return Mono.create(sink -> {
+                Waiter waiter = new Waiter(priority, sink);
+                sink.onCancel(() -> cancel(waiter));
+
+                LanePermit granted = null;
+                boolean shed = false;
+                synchronized (this) {
+                    if (canGrant(priority)) {
+                        if (waiter.claim()) {
+                            granted = grant(priority);
+                        }
+                    } else if (priority == RequestPriority.BATCH
+                            && (!interactiveWaiters.isEmpty() || batchWaiters.size() >= maxPendingBatch)) {
+                        shed = true;
+                    } else {
+                        queueFor(priority).addLast(waiter);
+                    }
+                }
+
+                if (granted != null) {
+                    waiter.complete(granted);
+                } else if (shed) {
+                    recordOutcome(priority, "shed");
+                    sink.error(new CustomerMasterException("Batch request shed for pool: " + poolKey, 503));
+                }
+            });
+        }
+
+        void release(RequestPriority priority) {
+            List<Map.Entry<Waiter, LanePermit>> handoffs = new ArrayList<>();
+            synchronized (this) {
+                inUse--;
+                inFlight.get(priority).decrementAndGet();
+                drain(interactiveWaiters, RequestPriority.INTERACTIVE, handoffs);
+                drain(batchWaiters, RequestPriority.BATCH, handoffs);
+            }
+            handoffs.forEach(handoff -> handoff.getKey().complete(handoff.getValue()));
+        }
+
+        private void drain(Deque<Waiter> queue, RequestPriority priority, List<Map.Entry<Waiter, LanePermit>> handoffs) {
+            while (!queue.isEmpty() && hasRoomFor(priority)) {
+                Waiter waiter = queue.pollFirst();
+                if (waiter.claim()) {
+                    handoffs.add(Map.entry(waiter, grant(priority)));
+                }
+            }
+        }
+
+        private void cancel(Waiter waiter) {
+            if (waiter.abandon()) {
+                synchronized (this) {
+                    queueFor(waiter.priority).remove(waiter);
+                }
+            }
+        }
+
+        // Caller holds the lock; new arrivals also respect FIFO within their lane
+        private boolean canGrant(RequestPriority priority) {
+            if (!interactiveWaiters.isEmpty()) {
+                return false;
+            }
+            return hasRoomFor(priority) && (priority == RequestPriority.INTERACTIVE || batchWaiters.isEmpty());
+        }
+
+        private boolean hasRoomFor(RequestPriority priority) {
+            if (inUse >= capacity) {
+                return false;
+            }
+            return priority == RequestPriority.INTERACTIVE
+                || (interactiveWaiters.isEmpty() && inFlight.get(RequestPriority.BATCH).get() < batchLimit);
+        }
+
+        private LanePermit grant(RequestPriority priority) {
+            inUse++;
+            inFlight.get(priority).incrementAndGet();
+            return new LanePermit(this, priority);
+        }
+
+        private Deque<Waiter> queueFor(RequestPriority priority) {
+            return priority == RequestPriority.INTERACTIVE ? interactiveWaiters : batchWaiters;
+        }
+
+        private synchronized int pendingCount(Deque<Waiter> queue) {
+            return queue.size();
+        }
+
+        void recordWait(RequestPriority priority, long waitNanos) {
+            waitTimers.get(priority).record(waitNanos, TimeUnit.NANOSECONDS);
+            recordOutcome(priority, "granted");
+        }
+
+        void recordOutcome(RequestPriority priority, String outcome) {
+            meterRegistry.counter("customer_master.lane.requests",
+                "pool", poolKey, "lane", priority.tagValue(), "outcome", outcome).increment();
+        }
+    }
+
+    private static final class Waiter {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final RequestPriority priority;
+        private final MonoSink<LanePermit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private volatile boolean cancelled;
+        private volatile LanePermit permit;
+
+        Waiter(RequestPriority priority, MonoSink<LanePermit> sink) {
+            this.priority = priority;
+            this.sink = sink;
+        }
+
+        boolean claim() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        /**
+         * Returns true if the waiter was still queued; a permit already handed over is given back
+         */
+        boolean abandon() {
+            cancelled = true;
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                return true;
+            }
+            LanePermit granted = permit;
+            if (granted != null) {
+                granted.release();
+            }
+            return false;
+        }
+
+        void complete(LanePermit granted) {
+            this.permit = granted;
+            sink.success(granted);
+            // Cancelled while the permit was in transit, so nobody downstream will release it
+            if (cancelled) {
+                granted.release();
+            }
+        }
+    }
+
+    private static final class LanePermit {
+
+        private final LaneGate gate;
+        private final RequestPriority priority;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        LanePermit(LaneGate gate, RequestPriority priority) {
+            this.gate = gate;
+            this.priority = priority;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                gate.release(priority);
+            }
+        }
+    }
+}
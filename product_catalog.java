@@ -0,0 +1,779 @@
+/**
+ * Read-only, column-oriented copy of one country's product catalog.
+ * Category and brand are interned into dictionaries and stored as int codes,
+ * prices as unscaled longs plus a scale byte, with indexes by id, category and brand.
+ * Deltas copy the columns and patch only the rows they touch; removed rows stay
+ * behind as tombstones (null id) until enough accumulate to compact.
+ */
+public final class ProductCatalogSnapshot {
+
+    private static final int FILE_MAGIC = 0x50434154; // "PCAT"
+    private static final int FILE_FORMAT = 2;
+    private static final byte NO_PRICE = Byte.MIN_VALUE;
+    // Price kept exactly in the side map because it does not fit an unscaled long with a byte scale
+    private static final byte OVERSIZED_PRICE = Byte.MIN_VALUE + 1;
+    private static final int NO_CODE = -1;
+    private static final double MAX_TOMBSTONE_SHARE = 0.25;
+    // ids, names, descriptions (length prefixes), category, brand, unscaled price, scale
+    private static final int MIN_ROW_BYTES = 3 * 4 + 4 + 4 + 8 + 1;
+
+    private final long version;
+    private final String[] ids;
+    private final String[] names;
+    private final String[] descriptions;
+    private final int[] categoryCodes;
+    private final int[] brandCodes;
+    private final long[] unscaledPrices;
+    private final byte[] priceScales;
+    private final Map<Integer, BigDecimal> oversizedPrices;
+    private final String[] categoryDictionary;
+    private final String[] brandDictionary;
+    private final int tombstones;
+
+    private final Map<String, Integer> rowById;
+    private final Map<String, Integer> categoryCodeByName;
+    private final Map<String, Integer> brandCodeByName;
+    private final int[][] rowsByCategory;
+    private final int[][] rowsByBrand;
+
+    private ProductCatalogSnapshot(long version, String[] ids, String[] names, String[] descriptions,
+                                   int[] categoryCodes, int[] brandCodes, long[] unscaledPrices, byte[] priceScales,
+                                   Map<Integer, BigDecimal> oversizedPrices, String[] categoryDictionary,
+                                   String[] brandDictionary, int tombstones, Map<String, Integer> rowById,
+                                   Map<String, Integer> categoryCodeByName, Map<String, Integer> brandCodeByName,
+                                   int[][] rowsByCategory, int[][] rowsByBrand) {
+        this.version = version;
+        this.ids = ids;
+        this.names = names;
+        this.descriptions = descriptions;
+        this.categoryCodes = categoryCodes;
+        this.brandCodes = brandCodes;
+        this.unscaledPrices = unscaledPrices;
+        this.priceScales = priceScales;
+        this.oversizedPrices = oversizedPrices;
+        this.categoryDictionary = categoryDictionary;
+        this.brandDictionary = brandDictionary;
+        this.tombstones = tombstones;
+        this.rowById = rowById;
+        this.categoryCodeByName = categoryCodeByName;
+        this.brandCodeByName = brandCodeByName;
+        this.rowsByCategory = rowsByCategory;
+        this.rowsByBrand = rowsByBrand;
+    }
+
+    /**
+     * Build a snapshot from products as returned by the product subsystem.
+     * Products without an id are skipped; for duplicate ids the last one wins.
+     */
+    public static ProductCatalogSnapshot of(long version, Collection<ProductResponse> products) {
+        Map<String, ProductResponse> unique = new LinkedHashMap<>(products.size() * 4 / 3 + 1);
+        for (ProductResponse product : products) {
+            if (product.getId() != null) {
+                unique.put(product.getId(), product);
+            }
+        }
+
+        int size = unique.size();
+        String[] ids = new String[size];
+        String[] names = new String[size];
+        String[] descriptions = new String[size];
+        int[] categoryCodes = new int[size];
+        int[] brandCodes = new int[size];
+        long[] unscaledPrices = new long[size];
+        byte[] priceScales = new byte[size];
+        Map<Integer, BigDecimal> oversizedPrices = new HashMap<>();
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        List<String> categories = new ArrayList<>();
+        Map<String, Integer> brandIndex = new HashMap<>();
+        List<String> brands = new ArrayList<>();
+
+        int row = 0;
+        for (ProductResponse product : unique.values()) {
+            ids[row] = product.getId();
+            names[row] = product.getName();
+            descriptions[row] = product.getDescription();
+            categoryCodes[row] = intern(categoryIndex, categories, product.getCategory());
+            brandCodes[row] = intern(brandIndex, brands, product.getBrand());
+            encodePrice(product.getPrice(), unscaledPrices, priceScales, oversizedPrices, row);
+            row++;
+        }
+
+        return build(version, ids, names, descriptions, categoryCodes, brandCodes, unscaledPrices, priceScales,
+            oversizedPrices, categories.toArray(new String[0]), brands.toArray(new String[0]));
+    }
+
+    /**
+     * Produce a new snapshot with the delta applied; this snapshot is left untouched.
+     * Only the changed rows are written and only the posting lists of codes they
+     * entered or left are rebuilt.
+     */
+    public ProductCatalogSnapshot apply(ProductCatalogDelta delta) {
+        Map<String, ProductResponse> upserts = new LinkedHashMap<>();
+        if (delta.getUpserts() != null) {
+            for (ProductResponse product : delta.getUpserts()) {
+                if (product.getId() != null) {
+                    upserts.put(product.getId(), product);
+                }
+            }
+        }
+
+        Map<String, Integer> nextRowById = new HashMap<>(rowById);
+        Set<Integer> removedRows = new HashSet<>();
+        if (delta.getRemovedIds() != null) {
+            for (String removedId : delta.getRemovedIds()) {
+                // An id that is both removed and upserted ends up upserted
+                Integer row = upserts.containsKey(removedId) ? null : nextRowById.remove(removedId);
+                if (row != null) {
+                    removedRows.add(row);
+                }
+            }
+        }
+        int appended = 0;
+        for (String id : upserts.keySet()) {
+            if (!rowById.containsKey(id)) {
+                appended++;
+            }
+        }
+
+        int length = ids.length + appended;
+        String[] nextIds = Arrays.copyOf(ids, length);
+        String[] nextNames = Arrays.copyOf(names, length);
+        String[] nextDescriptions = Arrays.copyOf(descriptions, length);
+        int[] nextCategoryCodes = Arrays.copyOf(categoryCodes, length);
+        int[] nextBrandCodes = Arrays.copyOf(brandCodes, length);
+        long[] nextUnscaledPrices = Arrays.copyOf(unscaledPrices, length);
+        byte[] nextPriceScales = Arrays.copyOf(priceScales, length);
+        Map<Integer, BigDecimal> nextOversizedPrices = new HashMap<>(oversizedPrices);
+        Map<String, Integer> nextCategoryIndex = new HashMap<>(categoryCodeByName);
+        List<String> nextCategories = new ArrayList<>(Arrays.asList(categoryDictionary));
+        Map<String, Integer> nextBrandIndex = new HashMap<>(brandCodeByName);
+        List<String> nextBrands = new ArrayList<>(Arrays.asList(brandDictionary));
+
+        Set<Integer> changedRows = new HashSet<>(removedRows);
+        Set<Integer> touchedCategories = new HashSet<>();
+        Set<Integer> touchedBrands = new HashSet<>();
+
+        for (int row : removedRows) {
+            touchedCategories.add(nextCategoryCodes[row]);
+            touchedBrands.add(nextBrandCodes[row]);
+            nextIds[row] = null;
+            nextNames[row] = null;
+            nextDescriptions[row] = null;
+            nextCategoryCodes[row] = NO_CODE;
+            nextBrandCodes[row] = NO_CODE;
+            nextPriceScales[row] = NO_PRICE;
+            nextOversizedPrices.remove(row);
+        }
+
+        int nextRow = ids.length;
+        for (ProductResponse product : upserts.values()) {
+            Integer row = nextRowById.get(product.getId());
+            if (row == null) {
+                row = nextRow++;
+                nextRowById.put(product.getId(), row);
+            } else {
+                touchedCategories.add(nextCategoryCodes[row]);
+                touchedBrands.add(nextBrandCodes[row]);
+            }
+            nextIds[row] = product.getId();
+            nextNames[row] = product.getName();
+            nextDescriptions[row] = product.getDescription();
+            nextCategoryCodes[row] = intern(nextCategoryIndex, nextCategories, product.getCategory());
+            nextBrandCodes[row] = intern(nextBrandIndex, nextBrands, product.getBrand());
+            nextOversizedPrices.remove(row);
+            encodePrice(product.getPrice(), nextUnscaledPrices, nextPriceScales, nextOversizedPrices, row);
+            touchedCategories.add(nextCategoryCodes[row]);
+            touchedBrands.add(nextBrandCodes[row]);
+            changedRows.add(row);
+        }
+
+        ProductCatalogSnapshot next = new ProductCatalogSnapshot(delta.getVersion(), nextIds, nextNames,
+            nextDescriptions, nextCategoryCodes, nextBrandCodes, nextUnscaledPrices, nextPriceScales,
+            nextOversizedPrices, nextCategories.toArray(new String[0]), nextBrands.toArray(new String[0]),
+            tombstones + removedRows.size(), nextRowById, nextCategoryIndex, nextBrandIndex,
+            patchPostings(rowsByCategory, nextCategories.size(), touchedCategories, changedRows, nextCategoryCodes),
+            patchPostings(rowsByBrand, nextBrands.size(), touchedBrands, changedRows, nextBrandCodes));
+
+        return next.tombstones > length * MAX_TOMBSTONE_SHARE ? next.compact() : next;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return rowById.size();
+    }
+
+    public ProductResponse getProduct(String productId) {
+        Integer row = rowById.get(productId);
+        return row != null ? toProduct(row) : null;
+    }
+
+    /**
+     * Exact-match filter on category and brand plus an optional inclusive price range.
+     * Null criteria match everything; results keep catalog order and are paged.
+     */
+    public List<ProductResponse> search(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice,
+                                        int page, int size) {
+        int categoryCode = lookupCode(categoryCodeByName, category);
+        int brandCode = lookupCode(brandCodeByName, brand);
+        if ((category != null && categoryCode == NO_CODE) || (brand != null && brandCode == NO_CODE)) {
+            return List.of();
+        }
+
+        // Walk the narrower posting list and check the remaining criteria per row
+        int[] candidates = null;
+        if (category != null) {
+            candidates = rowsByCategory[categoryCode];
+        }
+        if (brand != null && (candidates == null || rowsByBrand[brandCode].length < candidates.length)) {
+            candidates = rowsByBrand[brandCode];
+        }
+        int candidateCount = candidates != null ? candidates.length : ids.length;
+
+        long skip = (long) Math.max(page, 0) * Math.max(size, 0);
+        List<ProductResponse> results = new ArrayList<>(Math.min(Math.max(size, 0), candidateCount));
+        for (int i = 0; i < candidateCount && results.size() < size; i++) {
+            int row = candidates != null ? candidates[i] : i;
+            if (ids[row] == null) continue;
+            if (category != null && categoryCodes[row] != categoryCode) continue;
+            if (brand != null && brandCodes[row] != brandCode) continue;
+            if (!priceInRange(row, minPrice, maxPrice)) continue;
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            results.add(toProduct(row));
+        }
+        return results;
+    }
+
+    /**
+     * Serialize the live rows into a memory-mapped file, replacing any previous copy atomically
+     */
+    public void writeTo(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_FORMAT);
+            out.writeLong(version);
+            writeStrings(out, categoryDictionary);
+            writeStrings(out, brandDictionary);
+            out.writeInt(size());
+            for (int row = 0; row < ids.length; row++) {
+                if (ids[row] == null) continue;
+                writeString(out, ids[row]);
+                writeString(out, names[row]);
+                writeString(out, descriptions[row]);
+                out.writeInt(categoryCodes[row]);
+                out.writeInt(brandCodes[row]);
+                out.writeLong(unscaledPrices[row]);
+                out.writeByte(priceScales[row]);
+                if (priceScales[row] == OVERSIZED_PRICE) {
+                    writeString(out, oversizedPrices.get(row).toString());
+                }
+            }
+        }
+        byte[] content = bytes.toByteArray();
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, content.length);
+            buffer.put(content);
+            buffer.force();
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load a snapshot previously written with {@link #writeTo(Path)}.
+     * Counts, lengths and codes are checked against the file, so a damaged file
+     * fails with an IOException instead of oversized allocations or bad indexes.
+     */
+    public static ProductCatalogSnapshot readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != FILE_MAGIC || in.getInt() != FILE_FORMAT) {
+                throw new IOException("Unrecognized product catalog file: " + file);
+            }
+            long version = in.getLong();
+            String[] categoryDictionary = readStrings(in, file);
+            String[] brandDictionary = readStrings(in, file);
+            int size = readCount(in, MIN_ROW_BYTES, file);
+
+            String[] ids = new String[size];
+            String[] names = new String[size];
+            String[] descriptions = new String[size];
+            int[] categoryCodes = new int[size];
+            int[] brandCodes = new int[size];
+            long[] unscaledPrices = new long[size];
+            byte[] priceScales = new byte[size];
+            Map<Integer, BigDecimal> oversizedPrices = new HashMap<>();
+            Set<String> seenIds = new HashSet<>(size * 4 / 3 + 1);
+            for (int row = 0; row < size; row++) {
+                ids[row] = readString(in, file);
+                if (ids[row] == null || !seenIds.add(ids[row])) {
+                    throw new IOException("Missing or duplicate product id in catalog file: " + file);
+                }
+                names[row] = readString(in, file);
+                descriptions[row] = readString(in, file);
+                categoryCodes[row] = readCode(in, categoryDictionary.length, file);
+                brandCodes[row] = readCode(in, brandDictionary.length, file);
+                unscaledPrices[row] = in.getLong();
+                priceScales[row] = in.get();
+                if (priceScales[row] == OVERSIZED_PRICE) {
+                    String price = readString(in, file);
+                    if (price == null) {
+                        throw new IOException("Missing oversized price in catalog file: " + file);
+                    }
+                    oversizedPrices.put(row, new BigDecimal(price));
+                } else if (priceScales[row] < 0 && priceScales[row] != NO_PRICE) {
+                    throw new IOException("Invalid price scale in catalog file: " + file);
+                }
+            }
+
+            return build(version, ids, names, descriptions, categoryCodes, brandCodes, unscaledPrices, priceScales,
+                oversizedPrices, categoryDictionary, brandDictionary);
+        } catch (BufferUnderflowException | NumberFormatException e) {
+            throw new IOException("Corrupt product catalog file: " + file, e);
+        }
+    }
+
+    private static ProductCatalogSnapshot build(long version, String[] ids, String[] names, String[] descriptions,
+                                                int[] categoryCodes, int[] brandCodes, long[] unscaledPrices,
+                                                byte[] priceScales, Map<Integer, BigDecimal> oversizedPrices,
+                                                String[] categoryDictionary, String[] brandDictionary) {
+        Map<String, Integer> rowById = new HashMap<>(ids.length * 4 / 3 + 1);
+        for (int row = 0; row < ids.length; row++) {
+            rowById.put(ids[row], row);
+        }
+        return new ProductCatalogSnapshot(version, ids, names, descriptions, categoryCodes, brandCodes,
+            unscaledPrices, priceScales, oversizedPrices, categoryDictionary, brandDictionary, 0, rowById,
+            indexDictionary(categoryDictionary), indexDictionary(brandDictionary),
+            buildPostings(categoryCodes, categoryDictionary.length), buildPostings(brandCodes, brandDictionary.length));
+    }
+
+    // Rebuild from the live rows, dropping tombstones and dictionary entries nothing refers to any more
+    private ProductCatalogSnapshot compact() {
+        List<ProductResponse> live = new ArrayList<>(size());
+        for (int row = 0; row < ids.length; row++) {
+            if (ids[row] != null) {
+                live.add(toProduct(row));
+            }
+        }
+        return of(version, live);
+    }
+
+    private ProductResponse toProduct(int row) {
+        ProductResponse product = new ProductResponse();
+        product.setId(ids[row]);
+        product.setName(names[row]);
+        product.setDescription(descriptions[row]);
+        product.setCategory(categoryCodes[row] != NO_CODE ? categoryDictionary[categoryCodes[row]] : null);
+        product.setBrand(brandCodes[row] != NO_CODE ? brandDictionary[brandCodes[row]] : null);
+        product.setPrice(decodePrice(row));
+        return product;
+    }
+
+    private BigDecimal decodePrice(int row) {
+        switch (priceScales[row]) {
+            case NO_PRICE:
+                return null;
+            case OVERSIZED_PRICE:
+                return oversizedPrices.get(row);
+            default:
+                return BigDecimal.valueOf(unscaledPrices[row], priceScales[row]);
+        }
+    }
+
+    private boolean priceInRange(int row, BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return true;
+        }
+        BigDecimal price = decodePrice(row);
+        if (price == null) {
+            return false;
+        }
+        return (minPrice == null || price.compareTo(minPrice) >= 0)
+            && (maxPrice == null || price.compareTo(maxPrice) <= 0);
+    }
+
+    private static void encodePrice(BigDecimal price, long[] unscaledPrices, byte[] priceScales,
+                                    Map<Integer, BigDecimal> oversizedPrices, int row) {
+        if (price == null) {
+            priceScales[row] = NO_PRICE;
+            return;
+        }
+        BigDecimal normalized = price.stripTrailingZeros();
+        if (normalized.scale() < 0) {
+            normalized = normalized.setScale(0);
+        }
+        if (normalized.scale() > Byte.MAX_VALUE || normalized.unscaledValue().bitLength() > 63) {
+            // Rare enough that a boxed side entry is cheaper than widening every row
+            priceScales[row] = OVERSIZED_PRICE;
+            oversizedPrices.put(row, price);
+            return;
+        }
+        unscaledPrices[row] = normalized.unscaledValue().longValue();
+        priceScales[row] = (byte) normalized.scale();
+    }
+
+    private static int intern(Map<String, Integer> index, List<String> dictionary, String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = index.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            index.put(value, code);
+        }
+        return code;
+    }
+
+    private static int lookupCode(Map<String, Integer> dictionary, String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        return dictionary.getOrDefault(value, NO_CODE);
+    }
+
+    private static Map<String, Integer> indexDictionary(String[] dictionary) {
+        Map<String, Integer> index = new HashMap<>(dictionary.length * 4 / 3 + 1);
+        for (int code = 0; code < dictionary.length; code++) {
+            index.put(dictionary[code], code);
+        }
+        return index;
+    }
+
+    private static int[][] buildPostings(int[] codes, int dictionarySize) {
+        int[] counts = new int[dictionarySize];
+        for (int code : codes) {
+            if (code != NO_CODE) counts[code]++;
+        }
+        int[][] postings = new int[dictionarySize][];
+        for (int code = 0; code < dictionarySize; code++) {
+            postings[code] = new int[counts[code]];
+            counts[code] = 0;
+        }
+        for (int row = 0; row < codes.length; row++) {
+            int code = codes[row];
+            if (code != NO_CODE) postings[code][counts[code]++] = row;
+        }
+        return postings;
+    }
+
+    // Untouched codes share their posting arrays with the previous snapshot
+    private static int[][] patchPostings(int[][] postings, int dictionarySize, Set<Integer> touchedCodes,
+                                         Set<Integer> changedRows, int[] codes) {
+        int[][] patched = Arrays.copyOf(postings, dictionarySize);
+        for (int code : touchedCodes) {
+            if (code == NO_CODE) continue;
+            int[] previous = code < postings.length ? postings[code] : new int[0];
+            patched[code] = IntStream.concat(
+                    Arrays.stream(previous).filter(row -> !changedRows.contains(row)),
+                    changedRows.stream().mapToInt(Integer::intValue).filter(row -> codes[row] == code))
+                .sorted()
+                .toArray();
+        }
+        return patched;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static int readCount(ByteBuffer in, int minBytesPerEntry, Path file) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || (long) count * minBytesPerEntry > in.remaining()) {
+            throw new IOException("Invalid entry count " + count + " in catalog file: " + file);
+        }
+        return count;
+    }
+
+    private static int readCode(ByteBuffer in, int dictionarySize, Path file) throws IOException {
+        int code = in.getInt();
+        if (code != NO_CODE && (code < 0 || code >= dictionarySize)) {
+            throw new IOException("Dictionary code " + code + " out of range in catalog file: " + file);
+        }
+        return code;
+    }
+
+    private static String[] readStrings(ByteBuffer in, Path file) throws IOException {
+        String[] values = new String[readCount(in, 4, file)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(in, file);
+            if (values[i] == null) {
+                throw new IOException("Null dictionary entry in catalog file: " + file);
+            }
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer in, Path file) throws IOException {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Invalid string length " + length + " in catalog file: " + file);
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
+
+/**
+ * Keeps an optional local product catalog per country, refreshed from the product
+ * subsystem with delta requests and swapped in atomically as a new snapshot.
+ * A snapshot not confirmed by a refresh within max-staleness is no longer served.
+ */
+@Component
+@Slf4j
+public class LocalProductCatalog {
+
+    private static final String SUBSYSTEM = "product";
+
+    private final CustomerMasterWebClientFactory webClientFactory;
+    private final WebClientConfigurationProperties config;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CatalogState> states = new ConcurrentHashMap<>();
+    private final List<Disposable> refreshTasks = new CopyOnWriteArrayList<>();
+
+    @Value("${spring.profiles.active:dev}")
+    private String environment;
+
+    public LocalProductCatalog(CustomerMasterWebClientFactory webClientFactory,
+                               WebClientConfigurationProperties config,
+                               MeterRegistry meterRegistry) {
+        this.webClientFactory = webClientFactory;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        config.getCountries().forEach((country, countryConfig) -> {
+            CatalogConfig catalogConfig = countryConfig.getCatalog();
+            if (catalogConfig == null || !catalogConfig.isEnabled()) {
+                return;
+            }
+
+            CatalogState persisted = loadPersistedSnapshot(country, catalogConfig);
+            if (persisted != null) {
+                states.put(country, persisted);
+            }
+            registerMetrics(country);
+
+            refreshTasks.add(Flux.interval(Duration.ZERO, catalogConfig.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh(country, catalogConfig)
+                    .onErrorResume(error -> {
+                        log.warn("Product catalog refresh failed for country: {}", country, error);
+                        return Mono.empty();
+                    }))
+                .subscribe());
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        refreshTasks.forEach(Disposable::dispose);
+        refreshTasks.clear();
+    }
+
+    /**
+     * Get product from the local catalog, or null when it cannot be served locally
+     */
+    public ProductResponse getProduct(String productId, String country) {
+        ProductCatalogSnapshot snapshot = freshSnapshot(country);
+        return snapshot != null ? snapshot.getProduct(productId) : null;
+    }
+
+    /**
+     * Run a simple search against the local catalog, or return null when the
+     * country has no fresh catalog or the request cannot be answered locally
+     */
+    public List<ProductResponse> searchProducts(ProductSearchRequest request, String country) {
+        ProductCatalogSnapshot snapshot = freshSnapshot(country);
+        if (snapshot == null) {
+            return null;
+        }
+
+        BigDecimal minPrice = null;
+        BigDecimal maxPrice = null;
+        if (StringUtils.hasText(request.getPriceRange())) {
+            // Only "min-max" with either bound optional is understood locally
+            String[] bounds = request.getPriceRange().trim().split("-", -1);
+            if (bounds.length != 2) {
+                return null;
+            }
+            try {
+                minPrice = StringUtils.hasText(bounds[0]) ? new BigDecimal(bounds[0].trim()) : null;
+                maxPrice = StringUtils.hasText(bounds[1]) ? new BigDecimal(bounds[1].trim()) : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return snapshot.search(request.getCategory(), request.getBrand(), minPrice, maxPrice,
+            request.getPage(), request.getSize());
+    }
+
+    /**
+     * Fetch changes since the current snapshot version and swap in the result
+     */
+    public Mono<ProductCatalogSnapshot> refresh(String country, CatalogConfig catalogConfig) {
+        CatalogState state = states.get(country);
+        ProductCatalogSnapshot current = state != null ? state.snapshot : null;
+        long since = current != null ? current.getVersion() : 0L;
+
+        return fetchDelta(country, catalogConfig, since)
+            .publishOn(Schedulers.boundedElastic())
+            .map(delta -> {
+                if (current != null && !delta.isFullReload() && delta.getVersion() == current.getVersion()) {
+                    // Nothing changed, but the snapshot is now confirmed current
+                    states.put(country, new CatalogState(current, System.currentTimeMillis()));
+                    touchSnapshotFile(catalogConfig);
+                    return current;
+                }
+                ProductCatalogSnapshot next = current == null || delta.isFullReload()
+                    ? ProductCatalogSnapshot.of(delta.getVersion(),
+                        delta.getUpserts() != null ? delta.getUpserts() : List.of())
+                    : current.apply(delta);
+                states.put(country, new CatalogState(next, System.currentTimeMillis()));
+                log.debug("Product catalog for {} now at version {} with {} products",
+                    country, next.getVersion(), next.size());
+                persistSnapshot(country, catalogConfig, next);
+                return next;
+            });
+    }
+
+    private ProductCatalogSnapshot freshSnapshot(String country) {
+        CatalogState state = states.get(country);
+        if (state == null) {
+            return null;
+        }
+        Duration maxStaleness = config.getCountries().get(country).getCatalog().getMaxStaleness();
+        return state.ageMillis() <= maxStaleness.toMillis() ? state.snapshot : null;
+    }
+
+    private void registerMetrics(String country) {
+        Tags tags = Tags.of("country", country);
+        TimeGauge.builder("customer_master.catalog.age", states, TimeUnit.MILLISECONDS,
+                map -> map.containsKey(country) ? map.get(country).ageMillis() : Double.NaN)
+            .tags(tags)
+            .register(meterRegistry);
+        Gauge.builder("customer_master.catalog.version", states,
+                map -> map.containsKey(country) ? map.get(country).snapshot.getVersion() : Double.NaN)
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    // Bulk transfer: runs in the batch lane so it never competes with interactive product calls
+    private Mono<ProductCatalogDelta> fetchDelta(String country, CatalogConfig catalogConfig, long since) {
+        return Mono.defer(() -> {
+            ResolvedConfig resolvedConfig = config.resolveConfig(country, SUBSYSTEM, environment);
+            String path = (resolvedConfig.getPathMapping() != null ? resolvedConfig.getPathMapping() : "")
+                + "/products/changes";
+
+            // The full export easily exceeds the regular client's 1 MiB body limit
+            int maxExportBytes = (int) Math.min(catalogConfig.getMaxExportSize().toBytes(), Integer.MAX_VALUE);
+            return webClientFactory.getBulkWebClient(SUBSYSTEM, country, maxExportBytes)
+                .get()
+                .uri(uriBuilder -> uriBuilder.path(path).queryParam("since", since).build())
+                .retrieve()
+                .bodyToMono(ProductCatalogDelta.class);
+        }).contextWrite(RequestPriority.BATCH.context());
+    }
+
+    /**
+     * Load the persisted snapshot, aged by the file's modification time.
+     * The file is only a cache, so any failure to read it deletes it and starts empty.
+     */
+    private CatalogState loadPersistedSnapshot(String country, CatalogConfig catalogConfig) {
+        if (!StringUtils.hasText(catalogConfig.getSnapshotFile())) {
+            return null;
+        }
+        Path file = Path.of(catalogConfig.getSnapshotFile());
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            ProductCatalogSnapshot snapshot = ProductCatalogSnapshot.readFrom(file);
+            long writtenAt = Files.getLastModifiedTime(file).toMillis();
+            log.info("Loaded product catalog for {} from {} at version {}", country, file, snapshot.getVersion());
+            return new CatalogState(snapshot, writtenAt);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Discarding unreadable product catalog file for country: {}", country, e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException deleteError) {
+                log.warn("Failed to delete product catalog file: {}", file, deleteError);
+            }
+            return null;
+        }
+    }
+
+    private void touchSnapshotFile(CatalogConfig catalogConfig) {
+        if (!StringUtils.hasText(catalogConfig.getSnapshotFile())) {
+            return;
+        }
+        try {
+            Files.setLastModifiedTime(Path.of(catalogConfig.getSnapshotFile()), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Failed to touch product catalog file: {}", catalogConfig.getSnapshotFile(), e);
+        }
+    }
+
+    private void persistSnapshot(String country, CatalogConfig catalogConfig, ProductCatalogSnapshot snapshot) {
+        if (!StringUtils.hasText(catalogConfig.getSnapshotFile())) {
+            return;
+        }
+        try {
+            snapshot.writeTo(Path.of(catalogConfig.getSnapshotFile()));
+        } catch (IOException e) {
+            log.warn("Failed to persist product catalog for country: {}", country, e);
+        }
+    }
+
+    private static final class CatalogState {
+
+        private final ProductCatalogSnapshot snapshot;
+        private final long confirmedAtMillis;
+
+        CatalogState(ProductCatalogSnapshot snapshot, long confirmedAtMillis) {
+            this.snapshot = snapshot;
+            this.confirmedAtMillis = confirmedAtMillis;
+        }
+
+        long ageMillis() {
+            return Math.max(System.currentTimeMillis() - confirmedAtMillis, 0);
+        }
+    }
+}
+
+// Response of GET /products/changes?since={version}; since=0 returns the full catalog
+@Data
+public class ProductCatalogDelta {
+    private long version;
+    private boolean fullReload;
+    private List<ProductResponse> upserts;
+    private List<String> removedIds;
+}
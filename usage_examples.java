@@ -4,6 +4,8 @@
 @Slf4j
 public class CustomerController {
     
+    private static final String SHED_RETRY_AFTER_SECONDS = "5";
+    
     private final CustomerMasterService customerService;
     
     public CustomerController(CustomerMasterService customerService) {
@@ -13,11 +15,13 @@ public class CustomerController {
     @GetMapping("/{customerId}/profile")
     public Mono<ResponseEntity<ProfileResponse>> getProfile(
             @PathVariable String customerId,
-            @RequestHeader(value = "X-Country", required = false) String country) {
+            @RequestHeader(value = "X-Country", required = false) String country,
+            @RequestHeader(value = RequestPriority.HEADER, required = false) String priority) {
         
         return customerService.getProfile(customerId, country)
             .map(ResponseEntity::ok)
-            .onErrorReturn(ResponseEntity.notFound().build());
+            .onErrorResume(error -> errorResponse(error, HttpStatus.NOT_FOUND))
+            .contextWrite(RequestPriority.fromValue(priority).context());
     }
     
     @GetMapping("/{customerId}/products")
@@ -25,30 +29,60 @@ public class CustomerController {
             @PathVariable String customerId,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String brand,
-            @RequestHeader(value = "X-Country", required = false) String country) {
+            @RequestHeader(value = "X-Country", required = false) String country,
+            @RequestHeader(value = RequestPriority.HEADER, required = false) String priority) {
         
         ProductSearchRequest request = new ProductSearchRequest();
         request.setCategory(category);
         request.setBrand(brand);
         
-        return customerService.searchProducts(request, country);
+        // A streamed body cannot carry a ResponseEntity, so the 503 travels as an exception
+        return customerService.searchProducts(request, country)
+            .onErrorMap(CustomerController::isUnavailable, CustomerController::unavailable)
+            .contextWrite(RequestPriority.fromValue(priority).context());
     }
     
     @PutMapping("/{customerId}/preferences")
     public Mono<ResponseEntity<PreferencesResponse>> updatePreferences(
             @PathVariable String customerId,
             @RequestBody PreferencesUpdateRequest request,
-            @RequestHeader(value = "X-Country", required = false) String country) {
+            @RequestHeader(value = "X-Country", required = false) String country,
+            @RequestHeader(value = RequestPriority.HEADER, required = false) String priority) {
         
         return customerService.updatePreferences(customerId, request, country)
             .map(ResponseEntity::ok)
-            .onErrorReturn(ResponseEntity.badRequest().build());
+            .onErrorResume(error -> errorResponse(error, HttpStatus.BAD_REQUEST))
+            .contextWrite(RequestPriority.fromValue(priority).context());
     }
     
     @GetMapping("/health/{country}")
     public Mono<Map<String, Boolean>> getHealthStatus(@PathVariable String country) {
         return customerService.checkAllSubsystemsHealth(country);
     }
+    
+    /**
+     * Pass 503 (shed or timed-out lane work) through with Retry-After so callers back off;
+     * everything else maps to the endpoint's usual error status
+     */
+    private <T> Mono<ResponseEntity<T>> errorResponse(Throwable error, HttpStatus fallback) {
+        if (isUnavailable(error)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SHED_RETRY_AFTER_SECONDS)
+                .build());
+        }
+        return Mono.just(ResponseEntity.status(fallback).build());
+    }
+    
+    private static boolean isUnavailable(Throwable error) {
+        return error instanceof CustomerMasterException cme
+            && cme.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+    
+    private static ErrorResponseException unavailable(Throwable error) {
+        ErrorResponseException exception = new ErrorResponseException(HttpStatus.SERVICE_UNAVAILABLE, error);
+        exception.getHeaders().set(HttpHeaders.RETRY_AFTER, SHED_RETRY_AFTER_SECONDS);
+        return exception;
+    }
 }
 
 // Configuration for different environments
@@ -2,10 +2,16 @@
 @Slf4j
 public class CustomerMasterWebClientFactory {
     
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+    
     private final WebClientConfigurationProperties config;
     private final Map<String, WebClient> webClientCache = new ConcurrentHashMap<>();
+    private final Map<String, WebClient> bulkWebClientCache = new ConcurrentHashMap<>();
     private final Map<String, OAuth2AccessToken> tokenCache = new ConcurrentHashMap<>();
     private final WebClient oauthClient;
+    private final PriorityLaneLimiter priorityLanes;
+    private final ExchangeTelemetry exchangeTelemetry;
+    private final SampledRequestLogger requestLogger;
     
     @Value("${customer-master-adapter.country:US}")
     private String defaultCountry;
@@ -13,8 +19,14 @@ public class CustomerMasterWebClientFactory {
     @Value("${spring.profiles.active:dev}")
     private String environment;
     
-    public CustomerMasterWebClientFactory(WebClientConfigurationProperties config) {
+    public CustomerMasterWebClientFactory(WebClientConfigurationProperties config,
+                                          PriorityLaneLimiter priorityLanes,
+                                          ExchangeTelemetry exchangeTelemetry,
+                                          SampledRequestLogger requestLogger) {
         this.config = config;
+        this.priorityLanes = priorityLanes;
+        this.exchangeTelemetry = exchangeTelemetry;
+        this.requestLogger = requestLogger;
         this.oauthClient = WebClient.builder()
             .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
             .build();
@@ -31,6 +43,21 @@ public class CustomerMasterWebClientFactory {
             key -> createWebClient(resolvedConfig));
     }
     
+    /**
+     * Get WebClient for bulk transfers that need a larger in-memory body limit.
+     * Shares the connector (and so the connection pool) and filters of the regular client.
+     */
+    public WebClient getBulkWebClient(String subsystem, String country, int maxInMemorySize) {
+        country = country != null ? country : defaultCountry;
+        ResolvedConfig resolvedConfig = config.resolveConfig(country, subsystem, environment);
+        WebClient webClient = getWebClient(subsystem, country);
+        
+        return bulkWebClientCache.computeIfAbsent(resolvedConfig.getCacheKey() + "_" + maxInMemorySize,
+            key -> webClient.mutate()
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(maxInMemorySize))
+                .build());
+    }
+    
     /**
      * Get WebClient for subsystem using default country
      */
@@ -39,7 +66,7 @@ public class CustomerMasterWebClientFactory {
     }
     
     /**
-     * Create configured WebClient with OAuth filter
+     * Create configured WebClient with OAuth filter; every exchange holds a lane permit for its pool
      */
     private WebClient createWebClient(ResolvedConfig config) {
         return WebClient.builder()
@@ -47,11 +74,10 @@ public class CustomerMasterWebClientFactory {
             .filter(createOAuthFilter(config.getOauth(), config.getCacheKey()))
             .filter(createLoggingFilter())
             .filter(createRetryFilter())
+            .filter(priorityLanes.permitFilter(config))
+            .filter(exchangeTelemetry.dispatchFilter())
             .clientConnector(createConnector(config.getConnection()))
-            .codecs(configurer -> {
-                configurer.defaultCodecs().maxInMemorySize(1024 * 1024);
-                configurer.defaultCodecs().enableLoggingRequestDetails(true);
-            })
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
             .build();
     }
     
@@ -59,13 +85,19 @@ public class CustomerMasterWebClientFactory {
      * Create OAuth2 filter with token caching
      */
     private ExchangeFilterFunction createOAuthFilter(OAuthConfig oauthConfig, String cacheKey) {
-        return ExchangeFilterFunction.ofRequestProcessor(request -> {
+        return ExchangeFilterFunction.ofRequestProcessor(request -> Mono.deferContextual(ctx -> {
+            long startNanos = System.nanoTime();
+            Runnable recordTokenWait = () -> ExchangeTimings.from(ctx).recordTokenWait(System.nanoTime() - startNanos);
+            // Recorded on every outcome so a failed or abandoned token fetch still shows up;
+            // doOnTerminate fires before the request is dispatched, unlike doFinally
             return getAccessToken(oauthConfig, cacheKey)
+                .doOnTerminate(recordTokenWait)
+                .doOnCancel(recordTokenWait)
                 .map(token -> ClientRequest.from(request)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token.getTokenValue())
                     .build())
                 .doOnError(error -> log.error("Failed to obtain OAuth token for key: {}", cacheKey, error));
-        });
+        }));
     }
     
     /**
@@ -148,11 +180,13 @@ public class CustomerMasterWebClientFactory {
             .maxConnections(connectionConfig.getMaxConnections())
             .maxIdleTime(Duration.ofSeconds(60))
             .maxLifeTime(Duration.ofMinutes(10))
-            .pendingAcquireTimeout(Duration.ofSeconds(30))
+            // Every factory client holds a lane permit per exchange, capping concurrency at maxConnections,
+            // so callers queue in PriorityLaneLimiter (lane-acquire-timeout) and the pool itself rarely waits
+            .pendingAcquireTimeout(Duration.ofSeconds(5))
             .evictInBackground(Duration.ofSeconds(120))
             .build();
         
-        HttpClient httpClient = HttpClient.create(connectionProvider)
+        HttpClient httpClient = exchangeTelemetry.instrument(HttpClient.create(connectionProvider))
             .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionConfig.getTimeout())
             .responseTimeout(Duration.ofMillis(connectionConfig.getReadTimeout()))
             .doOnConnected(conn -> {
@@ -164,11 +198,13 @@ public class CustomerMasterWebClientFactory {
     }
     
     /**
-     * Logging filter for debugging
+     * Rate-limited request logging for debugging; logs the URI template only, since the
+     * expanded URL carries customer and product ids
      */
     private ExchangeFilterFunction createLoggingFilter() {
         return ExchangeFilterFunction.ofRequestProcessor(request -> {
-            log.debug("Request: {} {}", request.method(), request.url());
+            requestLogger.debug(log, "Request: {} {}", request.method(),
+                request.attribute(URI_TEMPLATE_ATTRIBUTE).orElse("<no template>"));
             return Mono.just(request);
         });
     }
@@ -179,9 +215,10 @@ public class CustomerMasterWebClientFactory {
     private ExchangeFilterFunction createRetryFilter() {
         return ExchangeFilterFunction.ofResponseProcessor(response -> {
             if (response.statusCode().is5xxServerError()) {
-                return Mono.error(new WebClientResponseException(
+                // Release the body so the connection and lane permit are returned
+                return response.releaseBody().then(Mono.error(new WebClientResponseException(
                     "Server error", response.statusCode().value(), 
-                    response.statusCode().getReasonPhrase(), null, null, null));
+                    response.statusCode().getReasonPhrase(), null, null, null)));
             }
             return Mono.just(response);
         });
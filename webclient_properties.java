@@ -7,10 +7,12 @@ public class WebClientConfigurationProperties {
     private ConnectionConfig defaultConnection = new ConnectionConfig();
     private Map<String, CountryConfig> countries = new HashMap<>();
     private Map<String, EnvironmentConfig> environments = new HashMap<>();
+    private InstrumentationConfig instrumentation = new InstrumentationConfig();
     
     @Data
     public static class CountryConfig {
         private Map<String, SubsystemConfig> subsystems = new HashMap<>();
+        private CatalogConfig catalog = new CatalogConfig();
     }
     
     @Data
@@ -36,6 +38,24 @@ public class WebClientConfigurationProperties {
         private int readTimeout = 60000;
         private int maxConnections = 100;
         private int maxConnectionsPerRoute = 20;
+        private double interactiveReservedShare = 0.2;
+        private int maxPendingBatch = 50;
+        private Duration laneAcquireTimeout = Duration.ofSeconds(25);
+    }
+    
+    @Data
+    public static class CatalogConfig {
+        private boolean enabled = false;
+        private Duration refreshInterval = Duration.ofMinutes(5);
+        private Duration maxStaleness = Duration.ofMinutes(15);
+        private DataSize maxExportSize = DataSize.ofMegabytes(64);
+        private String snapshotFile;
+    }
+    
+    @Data
+    public static class InstrumentationConfig {
+        private double phaseLogSampleRate = 0.01;
+        private int requestLogsPerSecond = 5;
     }
     
     @Data